@@ -0,0 +1,91 @@
+import java.util.Random;
+
+public class Benchmark {
+
+    // Times the distance heuristics on random 4x4 and 5x5
+    // boards: the per-tile computation State used before the
+    // Heuristic lookup tables, against the tables themselves.
+    // Their sums must agree.
+    //
+    //     javac *.java && java Benchmark [boards] [rounds]
+
+    private static double manhattan(Board board) {
+        double distance = 0;
+        for (int i = 0; i < board.len(); i++) {
+            int correctIndex = (board.get(i) + board.len() - 1) % board.len();
+            distance += Math.abs(board.row(correctIndex) - board.row(i)) + Math.abs(board.column(correctIndex) - board.column(i));
+        }
+        return distance;
+    }
+
+    private static double euclidean(Board board) {
+        double distance = 0;
+        for (int i = 0; i < board.len(); i++) {
+            int correctIndex = (board.get(i) + board.len() - 1) % board.len();
+            distance += Math.sqrt(Math.pow(board.row(correctIndex) - board.row(i), 2) + Math.pow(board.column(correctIndex) - board.column(i), 2));
+        }
+        return distance;
+    }
+
+    private static Board[] boards(int size, int count, Random random) {
+        // Boards scrambled by a random walk from the goal
+        Board[] boards = new Board[count];
+        for (int i = 0; i < count; i++) {
+            Board board = new Board(size, size);
+            for (int step = 0; step < 200; step++) {
+                Direction[] moves = board.moves(board.empty());
+                board = new Board(board, moves[random.nextInt(moves.length)]);
+            }
+            boards[i] = board;
+        }
+        return boards;
+    }
+
+    public static void main(String[] args) {
+
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1024;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        Random random = new Random(1);
+
+        for (int size : new int[]{4, 5}) {
+            Board[] boards = boards(size, count, random);
+            Heuristic heuristic = Heuristic.of(size, size);
+
+            // The first passes warm up the JIT; the last is reported
+            for (int pass = 0; pass < 3; pass++) {
+                double[] sums = new double[4];
+                long[] times = new long[4];
+
+                long start = System.nanoTime();
+                for (int r = 0; r < rounds; r++) for (Board board : boards) sums[0] += manhattan(board);
+                times[0] = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                for (int r = 0; r < rounds; r++) for (Board board : boards) sums[1] += heuristic.manhattan(board);
+                times[1] = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                for (int r = 0; r < rounds; r++) for (Board board : boards) sums[2] += euclidean(board);
+                times[2] = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                for (int r = 0; r < rounds; r++) for (Board board : boards) sums[3] += heuristic.euclidean(board);
+                times[3] = System.nanoTime() - start;
+
+                if (sums[0] != sums[1] || Math.abs(sums[2] - sums[3]) > 1e-6 * sums[2]) {
+                    System.err.println("Heuristic tables disagree with the per-tile computation");
+                    return;
+                }
+                if (pass < 2) continue;
+
+                double calls = (double) rounds * count;
+                System.out.println(size + "x" + size + " (ns per board)");
+                System.out.println(String.format("  Manhattan: per tile %6.1f  tables %6.1f  speedup %.1fx",
+                        times[0] / calls, times[1] / calls, (double) times[0] / times[1]));
+                System.out.println(String.format("  Euclidean: per tile %6.1f  tables %6.1f  speedup %.1fx",
+                        times[2] / calls, times[3] / calls, (double) times[2] / times[3]));
+            }
+        }
+    }
+
+}
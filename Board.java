@@ -119,20 +119,27 @@ public final class Board {
 
     public int position(int position, Direction direction) {
         // Position of the adjacent square in a given direction
+        return position(rows, columns, position, direction);
+    }
+
+    public static int position(int rows, int columns, int position, Direction direction) {
+        // Position of the adjacent square in a given direction
+        // on any rows x columns board, or -1 off the edge
 
+        int size = rows * columns;
         switch (direction) {
 
             case UP -> {
-                if (isValidIndex(position - columns)) return position - columns;
+                if (position - columns >= 0) return position - columns;
             }
             case DOWN -> {
-                if (isValidIndex(position + columns)) return position + columns;
+                if (position + columns < size) return position + columns;
             }
             case LEFT -> {
-                if (isValidIndex(position - 1) && position % columns != 0) return position - 1;
+                if (position - 1 >= 0 && position % columns != 0) return position - 1;
             }
             case RIGHT -> {
-                if (isValidIndex(position + 1) && (position + 1) % columns != 0) return position + 1;
+                if (position + 1 < size && (position + 1) % columns != 0) return position + 1;
             }
 
         }
@@ -0,0 +1,100 @@
+import java.util.HashMap;
+
+public final class Heuristic {
+
+    // An IMMUTABLE set of lookup tables for the distance
+    // heuristics on an n x m board.  For every tile and every
+    // position the goal offset is precomputed, so scoring a
+    // board is one table read per tile with no division,
+    // modulo, Math.pow or Math.sqrt.  Tables are built once
+    // per board size and shared by every state.
+
+    private static final HashMap<String, Heuristic> heuristics = new HashMap<>();
+    private static Heuristic last;
+
+    private final int rows;
+    private final int columns;
+    private final int[] rowDistance;
+    private final int[] columnDistance;
+    private final double[] euclidean;
+
+    private Heuristic(int rows, int columns) {
+        // rowDistance[tile * size + index] is how many rows tile
+        // is from its goal when it sits at index; likewise for
+        // columns.  euclidean[] is indexed the same way.
+
+        this.rows = rows;
+        this.columns = columns;
+        int size = rows * columns;
+
+        rowDistance = new int[size * size];
+        columnDistance = new int[size * size];
+        euclidean = new double[size * size];
+
+        for (int tile = 0; tile < size; tile++) {
+            int goal = (tile + size - 1) % size;
+            for (int index = 0; index < size; index++) {
+                int dr = Math.abs(goal / columns - index / columns);
+                int dc = Math.abs(goal % columns - index % columns);
+                rowDistance[tile * size + index] = dr;
+                columnDistance[tile * size + index] = dc;
+                euclidean[tile * size + index] = Math.sqrt(dr * dr + dc * dc);
+            }
+        }
+    }
+
+    public static Heuristic of(int rows, int columns) {
+        // The shared tables for a board size, building them
+        // the first time they are requested
+
+        if (last != null && last.rows == rows && last.columns == columns) return last;
+        String key = rows + "x" + columns;
+        Heuristic heuristic = heuristics.get(key);
+        if (heuristic == null) {
+            heuristic = new Heuristic(rows, columns);
+            heuristics.put(key, heuristic);
+        }
+        last = heuristic;
+        return heuristic;
+    }
+
+    public int manhattan(Board board) {
+        return manhattan(board, true);
+    }
+
+    public int manhattan(Board board, boolean empty) {
+        // Sum of row and column distances of every tile from
+        // its goal.  Leaving out the empty square (empty false)
+        // keeps the estimate from exceeding the true number of
+        // moves, at the price of a weaker estimate.
+        assert board.rows() == rows && board.columns() == columns;
+
+        int size = board.len();
+        int distance = 0;
+        for (int i = 0; i < size; i++) {
+            if (!empty && board.get(i) == 0) continue;
+            int offset = board.get(i) * size + i;
+            distance += rowDistance[offset] + columnDistance[offset];
+        }
+        return distance;
+    }
+
+    public double euclidean(Board board) {
+        return euclidean(board, true);
+    }
+
+    public double euclidean(Board board, boolean empty) {
+        // Sum of straight line distances of every tile from
+        // its goal, with or without the empty square
+        assert board.rows() == rows && board.columns() == columns;
+
+        int size = board.len();
+        double distance = 0;
+        for (int i = 0; i < size; i++) {
+            if (!empty && board.get(i) == 0) continue;
+            distance += euclidean[board.get(i) * size + i];
+        }
+        return distance;
+    }
+
+}
@@ -0,0 +1,370 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+
+public final class Perimeter {
+
+    // An IMMUTABLE table of every board within a fixed
+    // number of moves of the goal, together with its exact
+    // distance to the goal.  Each board is packed into one
+    // or more longs (a few bits per tile) and the table is
+    // kept sorted so a lookup is one binary search.
+    //
+    // The first time a (rows, columns, depth) table is asked
+    // for it is built and written to a file in the working
+    // directory; later runs memory-map that file instead of
+    // building it again.  Within a run the table is shared
+    // by every search that asks for it.  Lookups pack the board
+    // into scratch arrays, so a table is for one thread only.
+
+    private static final HashMap<String, Perimeter> perimeters = new HashMap<>();
+    private static final int MAGIC = 0x50455249;
+    private static final int HEADER = 6 * Integer.BYTES;
+
+    private final int rows;
+    private final int columns;
+    private final int depth;
+    private final int bits;
+    private final int perWord;
+    private final int words;
+    private final int count;
+    private final LongBuffer keys;
+    private final ByteBuffer distances;
+    private final int[] scratch;
+    private final long[] key;
+
+    private Perimeter(int rows, int columns, int depth) {
+        this.rows = rows;
+        this.columns = columns;
+        this.depth = depth;
+        this.bits = Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(rows * columns - 1));
+        this.perWord = Long.SIZE / bits;
+        this.words = (rows * columns + perWord - 1) / perWord;
+
+        if (rows < 1 || columns < 1) throw new IllegalArgumentException("Invalid size");
+        if (depth < 0 || depth > Byte.MAX_VALUE) throw new IllegalArgumentException("Invalid depth");
+
+        Path path = path(rows, columns, depth);
+        ByteBuffer mapped = load(path);
+        if (mapped == null) {
+            mapped = build();
+            save(path, mapped);
+        }
+
+        count = mapped.getInt(5 * Integer.BYTES);
+        int size = count * words * Long.BYTES;
+        keys = mapped.slice(HEADER, size).asLongBuffer();
+        distances = mapped.slice(HEADER + size, count);
+        scratch = new int[rows * columns];
+        key = new long[words];
+    }
+
+    public static Perimeter of(int rows, int columns, int depth) {
+        // The shared perimeter for a board size and depth,
+        // loading or building it the first time it is requested
+
+        String key = rows + "x" + columns + ":" + depth;
+        Perimeter perimeter = perimeters.get(key);
+        if (perimeter == null) {
+            perimeter = new Perimeter(rows, columns, depth);
+            perimeters.put(key, perimeter);
+        }
+        return perimeter;
+    }
+
+    private static Path path(int rows, int columns, int depth) {
+        return Paths.get("perimeter-" + rows + "x" + columns + "-" + depth + ".dat");
+    }
+
+    private ByteBuffer load(Path path) {
+        // Memory-map a previously saved table, or null if there
+        // is none or it does not match this size and depth
+
+        if (!Files.isRegularFile(path)) return null;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.limit() < HEADER) return null;
+            int count = mapped.getInt(5 * Integer.BYTES);
+            boolean valid = mapped.getInt(0) == MAGIC
+                    && mapped.getInt(Integer.BYTES) == rows
+                    && mapped.getInt(2 * Integer.BYTES) == columns
+                    && mapped.getInt(3 * Integer.BYTES) == depth
+                    && mapped.getInt(4 * Integer.BYTES) == words
+                    && mapped.limit() == HEADER + (long) count * (words * Long.BYTES + 1);
+            return valid ? mapped : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void save(Path path, ByteBuffer table) {
+        // Write the table next to the program so later runs can
+        // map it; a table that cannot be saved is still usable
+
+        Path temporary = Paths.get(path + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = table.duplicate();
+                buffer.clear();
+                while (buffer.hasRemaining()) channel.write(buffer);
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private ByteBuffer build() {
+        // Breadth first search outward from the goal on packed
+        // boards, one layer per move.  Moves alternate the empty
+        // square between two colours of a checkerboard, so the
+        // neighbours of layer d lie only in layers d-1 and d+1:
+        // the next layer is the sorted, de-duplicated neighbours
+        // of this one less the previous layer.  Each new layer is
+        // merged into the sorted table as it is found.
+
+        int[] tiles = Board.goal(rows, columns);
+        long[] layer = new long[words];
+        pack(tiles, layer, 0);
+        long[] previous = new long[0];
+
+        long[] table = layer.clone();
+        byte[] distance = new byte[1];
+
+        for (int d = 1; d <= depth && layer.length > 0; d++) {
+            reserve(table.length, layer.length);
+            long[] next = expand(layer, tiles);
+            sort(next, 0, next.length / words - 1);
+            int n = unique(next);
+            n = subtract(next, n, previous);
+            previous = layer;
+            layer = Arrays.copyOf(next, n * words);
+
+            long[] merged = new long[table.length + layer.length];
+            byte[] mergedDistance = new byte[merged.length / words];
+            merge(table, distance, layer, (byte) d, merged, mergedDistance);
+            table = merged;
+            distance = mergedDistance;
+        }
+
+        int count = distance.length;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER + table.length * Long.BYTES + count);
+        buffer.putInt(MAGIC).putInt(rows).putInt(columns).putInt(depth).putInt(words).putInt(count);
+        buffer.asLongBuffer().put(table);
+        buffer.position(HEADER + table.length * Long.BYTES);
+        buffer.put(distance);
+        buffer.clear();
+        return buffer;
+    }
+
+    private void reserve(long table, long layer) {
+        // Fail with a message, before allocating, when the next
+        // layer could outgrow the saved file or the heap.  Each
+        // board in the next layer came from a board in this one
+        // by one of at most three moves that do not step back.
+
+        long records = (table + 3 * layer) / words;
+        if (HEADER + records * (words * Long.BYTES + 1) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Perimeter too large");
+        }
+
+        // Neighbours, the new layer, the merged table and the
+        // saved buffer at the end, on top of what is held now
+        long needed = Long.BYTES * (4 * layer + 3 * layer + table + 3 * layer) + 2 * records;
+        Runtime runtime = Runtime.getRuntime();
+        if (needed > runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory())) {
+            System.gc();
+            if (needed > runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory())) {
+                throw new IllegalArgumentException("Perimeter too large for available memory");
+            }
+        }
+    }
+
+    private long[] expand(long[] layer, int[] tiles) {
+        // Every board one move away from a board in the layer
+
+        long[] next = new long[layer.length * 4];
+        int n = 0;
+        for (int record = 0; record < layer.length / words; record++) {
+            unpack(layer, record, tiles);
+            int empty = 0;
+            while (tiles[empty] != 0) empty++;
+            for (Direction direction : Direction.values()) {
+                int position = Board.position(rows, columns, empty, direction);
+                if (position < 0) continue;
+                tiles[empty] = tiles[position];
+                tiles[position] = 0;
+                pack(tiles, next, n++);
+                tiles[position] = tiles[empty];
+                tiles[empty] = 0;
+            }
+        }
+        return Arrays.copyOf(next, n * words);
+    }
+
+    private void pack(int[] tiles, long[] keys, int record) {
+        // Tiles in board order, bits per tile, first tile highest
+        for (int w = 0; w < words; w++) {
+            long key = 0;
+            for (int i = w * perWord; i < (w + 1) * perWord; i++) {
+                key = (key << bits) | (i < tiles.length ? tiles[i] : 0);
+            }
+            keys[record * words + w] = key;
+        }
+    }
+
+    private void unpack(long[] keys, int record, int[] tiles) {
+        long mask = (1L << bits) - 1;
+        for (int w = 0; w < words; w++) {
+            long key = keys[record * words + w];
+            for (int i = (w + 1) * perWord - 1; i >= w * perWord; i--) {
+                if (i < tiles.length) tiles[i] = (int) (key & mask);
+                key >>>= bits;
+            }
+        }
+    }
+
+    private int compare(long[] a, int i, long[] b, int j) {
+        for (int w = 0; w < words; w++) {
+            int c = Long.compare(a[i * words + w], b[j * words + w]);
+            if (c != 0) return c;
+        }
+        return 0;
+    }
+
+    private void swap(long[] keys, int i, int j) {
+        for (int w = 0; w < words; w++) {
+            long t = keys[i * words + w];
+            keys[i * words + w] = keys[j * words + w];
+            keys[j * words + w] = t;
+        }
+    }
+
+    private void sort(long[] keys, int lo, int hi) {
+        // Quicksort on records of words longs each
+
+        if (words == 1) {
+            Arrays.sort(keys, lo, hi + 1);
+            return;
+        }
+        long[] pivot = new long[words];
+        while (lo < hi) {
+            System.arraycopy(keys, (lo + (hi - lo) / 2) * words, pivot, 0, words);
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (compare(keys, i, pivot, 0) < 0) i++;
+                while (compare(keys, j, pivot, 0) > 0) j--;
+                if (i <= j) swap(keys, i++, j--);
+            }
+            // Recurse on the smaller half to bound the stack
+            if (j - lo < hi - i) {
+                sort(keys, lo, j);
+                lo = i;
+            } else {
+                sort(keys, i, hi);
+                hi = j;
+            }
+        }
+    }
+
+    private int unique(long[] keys) {
+        // Drop repeated records in place; returns the number kept
+        int n = 0;
+        for (int record = 0; record < keys.length / words; record++) {
+            if (n == 0 || compare(keys, record, keys, n - 1) != 0) {
+                System.arraycopy(keys, record * words, keys, n * words, words);
+                n++;
+            }
+        }
+        return n;
+    }
+
+    private int subtract(long[] keys, int count, long[] remove) {
+        // Keep, in place, the first count records of keys that are
+        // not in remove; both sorted.  Returns the number kept.
+        int n = 0, j = 0;
+        for (int record = 0; record < count; record++) {
+            while (j < remove.length / words && compare(remove, j, keys, record) < 0) j++;
+            if (j < remove.length / words && compare(remove, j, keys, record) == 0) continue;
+            System.arraycopy(keys, record * words, keys, n * words, words);
+            n++;
+        }
+        return n;
+    }
+
+    private void merge(long[] a, byte[] da, long[] b, byte db, long[] keys, byte[] distances) {
+        // Merge two sorted, disjoint tables of records
+        int i = 0, j = 0, n = 0;
+        while (i < da.length || j < b.length / words) {
+            if (j == b.length / words || (i < da.length && compare(a, i, b, j) < 0)) {
+                System.arraycopy(a, i * words, keys, n * words, words);
+                distances[n++] = da[i++];
+            } else {
+                System.arraycopy(b, j * words, keys, n * words, words);
+                distances[n++] = db;
+                j++;
+            }
+        }
+    }
+
+    public int depth() {
+        // Largest distance stored in the table
+        return depth;
+    }
+
+    public int size() {
+        // Number of boards in the table
+        return count;
+    }
+
+    public boolean contains(Board board) {
+        return distance(board) >= 0;
+    }
+
+    public int distance(Board board) {
+        // Exact number of moves to the goal, or -1 if the
+        // board lies outside the perimeter
+
+        if (board.rows() != rows || board.columns() != columns) return -1;
+
+        for (int i = 0; i < scratch.length; i++) scratch[i] = board.get(i);
+        pack(scratch, key, 0);
+
+        int lo = 0, hi = count - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = 0;
+            for (int w = 0; w < words && c == 0; w++) c = Long.compare(keys.get(mid * words + w), key[w]);
+            if (c < 0) lo = mid + 1;
+            else if (c > 0) hi = mid - 1;
+            else return distances.get(mid);
+        }
+        return -1;
+    }
+
+    public Direction next(Board board) {
+        // A move that takes a board inside the perimeter one
+        // step closer to the goal, or null at the goal itself
+
+        int distance = distance(board);
+        assert distance >= 0;
+        for (Direction direction : board.moves(board.empty())) {
+            if (distance(new Board(board, direction)) == distance - 1) return direction;
+        }
+        return null;
+    }
+
+}
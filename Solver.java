@@ -11,12 +11,12 @@ public class Solver {
         queue.offer(start);
         while (!queue.isEmpty()) {
             State current = queue.poll();
-            if (current.isGoal()) return current;
+            if (current.isGoal() || current.isPerimeter()) return join(current);
             if (!current.isExplored()) {
                 current.explored(true);
                 for (Direction direction : current.actions()) {
                     State next = State.find(current.next(direction).board());
-                    if (!next.isExplored()) {
+                    if (!next.isExplored() && next.isShorter(current)) {
                         next.update(current, direction);
                         queue.offer(next);
                     }
@@ -33,7 +33,7 @@ public class Solver {
         stack.push(start);
         while (!stack.isEmpty()) {
             State current = stack.pop();
-            if (current.isGoal()) return current;
+            if (current.isGoal() || current.isPerimeter()) return join(current);
             if (!current.isExplored()) {
                 current.explored(true);
                 for (Direction direction : current.actions()) {
@@ -48,7 +48,36 @@ public class Solver {
         return null;
     }
 
+    private static final class Entry implements Comparable<Entry> {
+
+        // A queued state with its cost and score as they were
+        // when it was added.  A state whose cost later improves
+        // is added again rather than moved, and the old entry is
+        // skipped when it comes off the queue.
+
+        private final State state;
+        private final int cost;
+        private final double score;
+
+        private Entry(State state) {
+            this.state = state;
+            this.cost = state.cost();
+            this.score = state.evaluate();
+        }
+
+        private boolean isStale() {
+            return state.isExplored() || state.cost() != cost;
+        }
+
+        @Override
+        public int compareTo(Entry o) {
+            return Double.compare(score, o.score);
+        }
+    }
+
     public static State aStar(Board initial) {
+        if (State.perimeter() != null) return aStarPerimeter(initial);
+
         Queue<State> queue = new PriorityQueue<>();
         State start = State.find(initial);
         queue.add(start);
@@ -70,6 +99,50 @@ public class Solver {
         return null;
     }
 
+    private static State aStarPerimeter(Board initial) {
+        // A* that stops early on the perimeter.  Joining the exact
+        // tail is only shortest if each state keeps its cheapest
+        // cost, so a state is re-queued only when its cost improves
+        Queue<Entry> queue = new PriorityQueue<>();
+        State start = State.find(initial);
+        queue.add(new Entry(start));
+        State best = null;
+        while (!queue.isEmpty()) {
+            Entry entry = queue.poll();
+            if (entry.isStale()) continue;
+            State current = entry.state;
+            // Nothing left in the queue can beat the best
+            // solution through the perimeter found so far
+            if (best != null && entry.score >= best.complete()) break;
+            if (current.isGoal() || current.isPerimeter()) {
+                if (best == null || current.complete() < best.complete()) best = current;
+                continue;
+            }
+            current.explored(true);
+            for (Direction direction : current.actions()) {
+                State next = State.find(current.next(direction).board());
+                if (!next.isExplored() && next.isShorter(current)) {
+                    next.update(current, direction);
+                    queue.add(new Entry(next));
+                }
+            }
+        }
+        return best == null ? null : join(best);
+    }
+
+    private static State join(State state) {
+        // Follow the perimeter from a state on it down to the
+        // goal, extending the parent chain one move at a time
+        State rover = state;
+        while (!rover.isGoal()) {
+            Direction direction = State.perimeter().next(rover.board());
+            State next = State.find(rover.next(direction).board());
+            next.update(rover, direction);
+            rover = next;
+        }
+        return rover;
+    }
+
     public static Direction[] solution(State state) {
         State rover = state;
         Stack<Direction> moves = new Stack<>();
@@ -3,13 +3,17 @@ import java.util.HashMap;
 public class State implements Comparable<State> {
 
     private static final HashMap<Board, State> states = new HashMap<>();
+    private static final int UNKNOWN = -2;
     private static int a, l;
     private static double b;
+    private static Perimeter perimeter;
     private final Board board;
     private State parent;
     private Direction direction;
     private int cost;
     private boolean explored;
+    private double score;
+    private int exact;
 
     public State(Board board) {
         this.board = board;
@@ -17,6 +21,8 @@ public class State implements Comparable<State> {
         this.direction = null;
         this.cost = 0;
         this.explored = false;
+        this.score = Double.NaN;
+        this.exact = UNKNOWN;
     }
 
     public static State find(Board board) {
@@ -46,6 +52,24 @@ public class State implements Comparable<State> {
         a = A;
         b = B;
         l = L;
+        forget();
+    }
+
+    public static void perimeter(Perimeter p) {
+        perimeter = p;
+        forget();
+    }
+
+    private static void forget() {
+        // Cached heuristics depend on the configuration
+        for (State state : states.values()) {
+            state.score = Double.NaN;
+            state.exact = UNKNOWN;
+        }
+    }
+
+    public static Perimeter perimeter() {
+        return perimeter;
     }
 
     public Board board() {
@@ -72,10 +96,28 @@ public class State implements Comparable<State> {
         return board.isGoal();
     }
 
+    public boolean isPerimeter() {
+        return exact() >= 0;
+    }
+
+    private int exact() {
+        // Distance to the goal from the perimeter, or -1 outside
+        // it; looked up once per state since every lookup packs
+        // the board and searches the whole table
+        if (exact == UNKNOWN) exact = perimeter == null ? -1 : perimeter.distance(board);
+        return exact;
+    }
+
     public void explored(boolean explored) {
         this.explored = explored;
     }
 
+    public boolean isShorter(State parent) {
+        // Whether reaching this state through parent beats
+        // every path to it found so far
+        return this.parent == null || parent.cost + 1 < this.cost;
+    }
+
     public void update(State parent, Direction direction) {
         this.parent = parent;
         this.direction = direction;
@@ -96,11 +138,39 @@ public class State implements Comparable<State> {
         return Double.compare(evaluate(), o.evaluate());
     }
 
+    public double complete() {
+        // Score the goal would have if reached from this state
+        // along the exact path stored in the perimeter
+        int remaining = isPerimeter() ? exact() : 0;
+        return a * (cost + remaining);
+    }
+
     public double evaluate() {
         return a * cost + b * heuristic();
     }
 
     private double heuristic() {
+        // The priority queue compares states far more often than
+        // it adds them, so the estimate is computed once per state
+        if (Double.isNaN(score)) score = measure();
+        return score;
+    }
+
+    private double measure() {
+
+        // Inside the perimeter the distance is exact; outside
+        // it the goal is at least one move beyond its edge
+
+        if (perimeter == null) return estimate();
+        if (isPerimeter()) return exact();
+        return Math.max(estimate(), perimeter.depth() + 1);
+    }
+
+    private double estimate() {
+
+        // Stopping at the perimeter is only safe if the estimate
+        // never overshoots, so the empty square is left out of
+        // the distances while a perimeter is in use
 
         double distance = 0;
 
@@ -114,26 +184,17 @@ public class State implements Comparable<State> {
             }
 
             case 1 -> {
-                for (int i = 0; i < board.len(); i++) {
-                    int correctIndex = (board.get(i) + board.len() - 1) % board.len();
-                    distance += Math.abs(board.row(correctIndex) - board.row(i)) + Math.abs(board.column(correctIndex) - board.column(i));
-                }
+                distance += Heuristic.of(board.rows(), board.columns()).manhattan(board, perimeter == null);
             }
 
             case 2 -> {
-                for (int i = 0; i < board.len(); i++) {
-                    int correctIndex = (board.get(i) + board.len() - 1) % board.len();
-                    distance += Math.sqrt(Math.pow(board.row(correctIndex) - board.row(i), 2) + Math.pow(board.column(correctIndex) - board.column(i), 2));
-                }
+                distance += Heuristic.of(board.rows(), board.columns()).euclidean(board, perimeter == null);
             }
 
             case 3 -> {
                 // Linear conflict heuristic
 
-                for (int i = 0; i < board.len(); i++) {
-                    int correctIndex = (board.get(i) + board.len() - 1) % board.len();
-                    distance += Math.abs(board.row(correctIndex) - board.row(i)) + Math.abs(board.column(correctIndex) - board.column(i));
-                }
+                distance += Heuristic.of(board.rows(), board.columns()).manhattan(board, perimeter == null);
 
                 for (int i = 0; i < board.rows(); i++) {
                     for (int j = 0; j < board.columns(); j++) {
@@ -157,10 +218,7 @@ public class State implements Comparable<State> {
             case 4 -> {
 
                 // Last moves heuristic
-                for (int i = 0; i < board.len(); i++) {
-                    int correctIndex = (board.get(i) + board.len() - 1) % board.len();
-                    distance += Math.abs(board.row(correctIndex) - board.row(i)) + Math.abs(board.column(correctIndex) - board.column(i));
-                }
+                distance += Heuristic.of(board.rows(), board.columns()).manhattan(board, perimeter == null);
 
                 int left = board.len()-1;
                 int top = board.len()- board.columns();
@@ -20,6 +20,7 @@ public class Tester {
         int rows = 4;
         int l = 0;
         double weight = 1.0;
+        int perimeter = 0;
         boolean stats = false;
         boolean verbose = false;
         boolean steps = false;
@@ -27,7 +28,7 @@ public class Tester {
         for (String arg : args) {
 
             switch (arg.toLowerCase()) {
-                case "-size", "-rows", "-cols", "-columns", "-weight" -> {
+                case "-size", "-rows", "-cols", "-columns", "-weight", "-perimeter" -> {
                     if (option.length() > 0) {
                         System.err.println("Missing value for option: " + option);
                     }
@@ -63,6 +64,7 @@ public class Tester {
                     case "-LM" -> l = 4;
                     case "-weight" -> weight = Double.parseDouble(arg);
                     case "-moves" -> steps = true;
+                    case "-perimeter" -> perimeter = Integer.parseInt(arg);
                     default -> {
                         int tile = Integer.parseInt(arg);
                         tiles.add(tile);
@@ -85,6 +87,14 @@ public class Tester {
             board = new Board(rows, columns);
         }
 
+        if (perimeter != 0) {
+            try {
+                State.perimeter(Perimeter.of(rows, columns, perimeter));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Invalid value for option -perimeter: " + perimeter + " (" + e.getMessage() + ")");
+            }
+        }
+
         State solutionNode, state = new State(board);
         switch (solve) {
 